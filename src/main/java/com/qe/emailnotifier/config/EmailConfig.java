@@ -61,7 +61,6 @@ public class EmailConfig {
         props.put("mail.smtp.timeout", String.valueOf(timeout));
         props.put("mail.smtp.writetimeout", String.valueOf(writeTimeout));
         props.put("mail.smtp.ssl.trust", mailHost);
-        props.put("mail.debug", "true"); // Enable debug logging
 
         return mailSender;
     }
@@ -0,0 +1,32 @@
+package com.qe.emailnotifier.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Compressed (gzip, zstd) request body support for the report endpoints.
+ *
+ * CBOR (application/cbor) and Smile (application/x-jackson-smile) need no extra wiring:
+ * Spring MVC registers their message converters after the JSON one whenever the Jackson
+ * dataformat modules are on the classpath, so JSON stays the default response type.
+ */
+@Configuration
+public class PayloadEncodingConfig {
+
+    @Value("${app.request.max-decoded-bytes:33554432}")
+    private long maxDecodedBytes;
+
+    @Value("${app.request.zstd-window-log-max:23}")
+    private int zstdWindowLogMax;
+
+    @Bean
+    public FilterRegistrationBean<RequestDecompressionFilter> requestDecompressionFilter(ObjectMapper objectMapper) {
+        FilterRegistrationBean<RequestDecompressionFilter> registration =
+                new FilterRegistrationBean<>(new RequestDecompressionFilter(objectMapper, maxDecodedBytes, zstdWindowLogMax));
+        registration.addUrlPatterns("/api/email/status", "/api/email/completion");
+        return registration;
+    }
+}
@@ -0,0 +1,235 @@
+package com.qe.emailnotifier.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdIOException;
+import com.github.luben.zstd.ZstdInputStream;
+import com.qe.emailnotifier.model.EmailResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Decodes gzip / zstd encoded request bodies before they reach the message converters.
+ * The decoded size is capped so a small compressed payload cannot expand without bound.
+ */
+@Slf4j
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private static final int MIN_ZSTD_WINDOW_LOG = 10;
+
+    private final ObjectMapper objectMapper;
+    private final long maxDecodedBytes;
+
+    /**
+     * Largest zstd window (log2) a frame may declare. libzstd allocates the window up front,
+     * so without this a few-byte frame could make every request reserve 2^27 bytes. Never
+     * larger than needed for {@code maxDecodedBytes}.
+     */
+    private final int zstdWindowLogMax;
+
+    public RequestDecompressionFilter(ObjectMapper objectMapper, long maxDecodedBytes, int zstdWindowLogMax) {
+        this.objectMapper = objectMapper;
+        this.maxDecodedBytes = maxDecodedBytes;
+        int neededLog = 64 - Long.numberOfLeadingZeros(Math.max(maxDecodedBytes - 1, 1));
+        this.zstdWindowLogMax = Math.max(MIN_ZSTD_WINDOW_LOG, Math.min(zstdWindowLogMax, neededLog));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.isBlank() || "identity".equalsIgnoreCase(encoding.trim())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body;
+        try (InputStream decoded = openDecoder(encoding.trim().toLowerCase(Locale.ROOT), request.getInputStream())) {
+            if (decoded == null) {
+                reject(response, HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                        "Unsupported Content-Encoding: " + encoding + " (supported: gzip, zstd)");
+                return;
+            }
+            body = readBounded(decoded);
+        } catch (PayloadTooLargeException e) {
+            log.warn("Rejected {} request body on {}: {}", encoding, request.getRequestURI(), e.getMessage());
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+            return;
+        } catch (ZstdIOException e) {
+            if (e.getErrorCode() == Zstd.errFrameParameterWindowTooLarge()) {
+                log.warn("Rejected zstd request body on {}: frame window exceeds 2^{}",
+                        request.getRequestURI(), zstdWindowLogMax);
+                reject(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                        "zstd frame window exceeds limit of " + (1L << zstdWindowLogMax) + " bytes");
+            } else {
+                reject(response, HttpStatus.BAD_REQUEST, "Malformed " + encoding + " request body");
+            }
+            return;
+        } catch (ZipException | EOFException e) {
+            reject(response, HttpStatus.BAD_REQUEST, "Malformed " + encoding + " request body");
+            return;
+        }
+
+        log.debug("Decoded {} request body on {}: {} -> {} bytes",
+                encoding, request.getRequestURI(), request.getContentLengthLong(), body.length);
+        filterChain.doFilter(new DecodedRequest(request, body), response);
+    }
+
+    private InputStream openDecoder(String encoding, InputStream raw) throws IOException {
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(raw);
+            case "zstd" -> new ZstdInputStream(raw).setLongMax(zstdWindowLogMax);
+            default -> null;
+        };
+    }
+
+    private byte[] readBounded(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxDecodedBytes) {
+                throw new PayloadTooLargeException(
+                        "Decoded request body exceeds limit of " + maxDecodedBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), EmailResponse.failure(message));
+    }
+
+    private static class PayloadTooLargeException extends IOException {
+        PayloadTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Presents the decoded body as a plain, unencoded request.
+     */
+    private static class DecodedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        DecodedRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The whole body is already in memory, so it is available immediately
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String charset = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(charset)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return null;
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return String.valueOf(body.length);
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.enumeration(Collections.singletonList(String.valueOf(body.length)));
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(header -> !HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(header))
+                    .toList());
+        }
+    }
+}
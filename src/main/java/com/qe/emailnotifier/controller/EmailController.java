@@ -2,6 +2,8 @@ package com.qe.emailnotifier.controller;
 
 import com.qe.emailnotifier.model.*;
 import com.qe.emailnotifier.service.EmailService;
+import com.qe.emailnotifier.service.ReportScheduleService;
+import com.qe.emailnotifier.service.SmtpTracer;
 import jakarta.mail.MessagingException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,8 +17,8 @@ import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("/api/email")
@@ -26,28 +28,29 @@ public class EmailController {
 
     private final EmailService emailService;
     private final TemplateEngine templateEngine;
+    private final SmtpTracer smtpTracer;
+    private final Optional<ReportScheduleService> reportScheduleService;
 
     /**
      * Send test status email
      */
     @PostMapping("/status")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> sendTestStatusEmail(
+    public ResponseEntity<EmailResponse> sendTestStatusEmail(
             @Valid @RequestBody TestStatusReport report) {
         
-        Map<String, Object> response = new HashMap<>();
-        
         try {
             emailService.sendTestStatusEmail(report);
-            response.put("success", true);
-            response.put("message", "Test status email sent successfully");
-            return ResponseEntity.ok(response);
+            reportScheduleService.ifPresent(service -> service.recordSubmission(report));
+            if (emailService.isQueued()) {
+                return ResponseEntity.accepted().body(EmailResponse.ok("Test status email queued for delivery"));
+            }
+            return ResponseEntity.ok(EmailResponse.ok("Test status email sent successfully"));
             
         } catch (MessagingException e) {
             log.error("Failed to send test status email", e);
-            response.put("success", false);
-            response.put("message", "Failed to send email: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(EmailResponse.failure("Failed to send email: " + e.getMessage()));
         }
     }
 
@@ -56,31 +59,32 @@ public class EmailController {
      */
     @PostMapping("/completion")
     @ResponseBody
-    public ResponseEntity<Map<String, Object>> sendTestCompletionEmail(
+    public ResponseEntity<EmailResponse> sendTestCompletionEmail(
             @Valid @RequestBody TestCompletionReport report) {
         
-        Map<String, Object> response = new HashMap<>();
-        
         try {
-            // Calculate pass percentage if not provided
-            if (report.getPassPercentage() == null && report.getTotalTestCases() != null && report.getTotalTestCases() > 0) {
-                double passRate = (report.getPassedTestCases() * 100.0) / report.getTotalTestCases();
-                report.setPassPercentage(passRate);
-            }
-            
             emailService.sendTestCompletionEmail(report);
-            response.put("success", true);
-            response.put("message", "Test completion email sent successfully");
-            return ResponseEntity.ok(response);
+            if (emailService.isQueued()) {
+                return ResponseEntity.accepted().body(EmailResponse.ok("Test completion email queued for delivery"));
+            }
+            return ResponseEntity.ok(EmailResponse.ok("Test completion email sent successfully"));
             
         } catch (MessagingException e) {
             log.error("Failed to send test completion email", e);
-            response.put("success", false);
-            response.put("message", "Failed to send email: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(EmailResponse.failure("Failed to send email: " + e.getMessage()));
         }
     }
 
+    /**
+     * Recent sampled SMTP protocol traces, newest first
+     */
+    @GetMapping("/debug/recent")
+    @ResponseBody
+    public List<SmtpTrace> recentSmtpTraces(@RequestParam(defaultValue = "20") int limit) {
+        return smtpTracer.recent(limit);
+    }
+
     /**
      * Preview test status email template
      */
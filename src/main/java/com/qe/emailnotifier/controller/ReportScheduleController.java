@@ -0,0 +1,80 @@
+package com.qe.emailnotifier.controller;
+
+import com.qe.emailnotifier.model.EmailResponse;
+import com.qe.emailnotifier.model.ReportDefinition;
+import com.qe.emailnotifier.service.ReportScheduleService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Controller
+@ConditionalOnProperty(name = "app.report-schedule.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping("/api/email/schedules")
+@RequiredArgsConstructor
+@Slf4j
+public class ReportScheduleController {
+
+    private final ReportScheduleService reportScheduleService;
+
+    /**
+     * List registered report definitions
+     */
+    @GetMapping
+    @ResponseBody
+    public List<ReportDefinition> listDefinitions() {
+        return reportScheduleService.list();
+    }
+
+    /**
+     * Get a single report definition
+     */
+    @GetMapping("/{id}")
+    @ResponseBody
+    public ResponseEntity<ReportDefinition> getDefinition(@PathVariable String id) {
+        return ResponseEntity.of(reportScheduleService.get(id));
+    }
+
+    /**
+     * Register a recurring report
+     */
+    @PostMapping
+    @ResponseBody
+    public ResponseEntity<ReportDefinition> registerDefinition(@Valid @RequestBody ReportDefinition definition) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(reportScheduleService.register(definition));
+    }
+
+    /**
+     * Replace an existing report definition and reschedule it
+     */
+    @PutMapping("/{id}")
+    @ResponseBody
+    public ResponseEntity<ReportDefinition> updateDefinition(@PathVariable String id,
+                                                             @Valid @RequestBody ReportDefinition definition) {
+        return ResponseEntity.of(reportScheduleService.update(id, definition));
+    }
+
+    /**
+     * Remove a report definition and cancel its schedule
+     */
+    @DeleteMapping("/{id}")
+    @ResponseBody
+    public ResponseEntity<Void> deleteDefinition(@PathVariable String id) {
+        return reportScheduleService.delete(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseBody
+    public ResponseEntity<EmailResponse> handleInvalidDefinition(IllegalArgumentException e) {
+        log.warn("Rejected report definition: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(EmailResponse.failure(e.getMessage()));
+    }
+}
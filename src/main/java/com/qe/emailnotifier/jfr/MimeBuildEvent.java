@@ -0,0 +1,20 @@
+package com.qe.emailnotifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.qe.emailnotifier.MimeBuild")
+@Label("MIME Message Build")
+@Category({"QE Reporting Hub", "Email"})
+@Description("Assembly of the MIME message from rendered HTML and recipients")
+public class MimeBuildEvent extends Event {
+
+    @Label("Subject")
+    public String subject;
+
+    @Label("Recipients")
+    public int recipients;
+}
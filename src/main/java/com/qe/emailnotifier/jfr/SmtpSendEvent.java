@@ -0,0 +1,30 @@
+package com.qe.emailnotifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.qe.emailnotifier.SmtpSend")
+@Label("SMTP Send")
+@Category({"QE Reporting Hub", "Email"})
+@Description("Hand-off of a MIME message to the SMTP relay")
+public class SmtpSendEvent extends Event {
+
+    @Label("Message ID")
+    public String messageId;
+
+    @Label("Relay Host")
+    public String host;
+
+    @Label("Traced")
+    @Description("Whether the SMTP conversation was captured for /api/email/debug/recent")
+    public boolean traced;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Error")
+    public String error;
+}
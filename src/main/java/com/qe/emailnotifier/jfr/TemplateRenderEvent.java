@@ -0,0 +1,24 @@
+package com.qe.emailnotifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.qe.emailnotifier.TemplateRender")
+@Label("Email Template Render")
+@Category({"QE Reporting Hub", "Email"})
+@Description("Thymeleaf rendering of an email body")
+public class TemplateRenderEvent extends Event {
+
+    @Label("Template")
+    public String template;
+
+    @Label("Project")
+    public String projectName;
+
+    @Label("HTML Length")
+    @Description("Rendered body length in characters")
+    public long htmlLength;
+}
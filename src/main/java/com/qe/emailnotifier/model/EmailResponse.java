@@ -0,0 +1,24 @@
+package com.qe.emailnotifier.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailResponse {
+
+    private boolean success;
+    private String message;
+
+    public static EmailResponse ok(String message) {
+        return new EmailResponse(true, message);
+    }
+
+    public static EmailResponse failure(String message) {
+        return new EmailResponse(false, message);
+    }
+}
@@ -0,0 +1,6 @@
+package com.qe.emailnotifier.model;
+
+public enum ReportDataSource {
+    FILE,               // Stored JSON report, re-read on every run
+    LAST_SUBMITTED      // Last TestStatusReport posted to /api/email/status for the project
+}
@@ -0,0 +1,46 @@
+package com.qe.emailnotifier.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportDefinition {
+
+    private String id;                  // Assigned on registration
+
+    @NotBlank(message = "Name is required")
+    private String name;
+
+    @NotNull(message = "Report type is required")
+    private ReportType reportType;      // Selects the email template
+
+    @NotBlank(message = "Cron schedule is required")
+    private String cron;                // e.g. "0 9 * * MON-FRI" or "0 0 9 * * MON-FRI"
+
+    private String timeZone;            // e.g. "America/Chicago", defaults to server zone
+    private Integer spreadSeconds;      // Max firing offset after the cron time, defaults to app setting
+
+    @NotNull(message = "Data source is required")
+    private ReportDataSource dataSource;
+    private String dataFile;            // JSON report file, for FILE
+    private String projectName;         // Project whose last submission is resent, for LAST_SUBMITTED
+
+    // Overrides applied on top of the report data when set
+    private String senderEmail;
+    private List<String> recipients;
+    private List<String> ccRecipients;
+    private List<String> bccRecipients;
+    private String subject;
+
+    @Builder.Default
+    private boolean enabled = true;
+}
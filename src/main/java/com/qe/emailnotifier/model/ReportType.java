@@ -0,0 +1,6 @@
+package com.qe.emailnotifier.model;
+
+public enum ReportType {
+    STATUS,
+    COMPLETION
+}
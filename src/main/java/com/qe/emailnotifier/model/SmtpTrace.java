@@ -0,0 +1,25 @@
+package com.qe.emailnotifier.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SmtpTrace {
+
+    private Instant timestamp;
+    private String messageId;
+    private String subject;
+    private int recipients;
+    private long durationMillis;
+    private boolean success;
+    private String error;
+    private String transcript;      // SMTP protocol conversation as logged by Jakarta Mail
+    private boolean truncated;      // Transcript was cut at app.email.smtp-trace.max-bytes
+}
@@ -1,5 +1,7 @@
 package com.qe.emailnotifier.service;
 
+import com.qe.emailnotifier.jfr.MimeBuildEvent;
+import com.qe.emailnotifier.jfr.TemplateRenderEvent;
 import com.qe.emailnotifier.model.TestCompletionReport;
 import com.qe.emailnotifier.model.TestStatusReport;
 import jakarta.mail.MessagingException;
@@ -14,6 +16,7 @@ import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +25,8 @@ public class EmailService {
 
     private final JavaMailSender mailSender;
     private final TemplateEngine templateEngine;
+    private final SmtpTracer smtpTracer;
+    private final Optional<MailSpool> mailSpool;
 
     @Value("${app.email.from}")
     private String fromEmail;
@@ -32,6 +37,13 @@ public class EmailService {
     private static final DateTimeFormatter DATE_TIME_FORMATTER = 
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * Whether emails are only queued in the shared spool rather than sent inline
+     */
+    public boolean isQueued() {
+        return mailSpool.isPresent();
+    }
+
     /**
      * Send test status email notification
      */
@@ -43,7 +55,7 @@ public class EmailService {
         context.setVariable("report", report);
         context.setVariable("dateTimeFormatter", DATE_TIME_FORMATTER);
 
-        String htmlContent = templateEngine.process("test-status-email", context);
+        String htmlContent = render("test-status-email", report.getProjectName(), context);
 
         // Use the subject from the report or generate a default one
         String subject = report.getSubject() != null ? report.getSubject() : 
@@ -64,11 +76,17 @@ public class EmailService {
         log.info("Preparing to send test completion email for project: {}", 
                 report.getProjectName());
 
+        // Calculate pass percentage if not provided
+        if (report.getPassPercentage() == null && report.getTotalTestCases() != null && report.getTotalTestCases() > 0) {
+            double passRate = (report.getPassedTestCases() * 100.0) / report.getTotalTestCases();
+            report.setPassPercentage(passRate);
+        }
+
         Context context = new Context();
         context.setVariable("report", report);
         context.setVariable("dateTimeFormatter", DATE_TIME_FORMATTER);
 
-        String htmlContent = templateEngine.process("test-completion-email", context);
+        String htmlContent = render("test-completion-email", report.getProjectName(), context);
 
         // Use the subject from the report or generate a default one
         String subject = report.getSubject() != null ? report.getSubject() : 
@@ -84,6 +102,20 @@ public class EmailService {
         log.info("Test completion email sent successfully");
     }
 
+    private String render(String template, String projectName, Context context) {
+        TemplateRenderEvent event = new TemplateRenderEvent();
+        event.begin();
+        String html = templateEngine.process(template, context);
+        event.end();
+        if (event.shouldCommit()) {
+            event.template = template;
+            event.projectName = projectName;
+            event.htmlLength = html.length();
+            event.commit();
+        }
+        return html;
+    }
+
     private void sendEmail(String senderEmail,
                           java.util.List<String> toRecipients,
                           java.util.List<String> ccRecipients,
@@ -92,6 +124,9 @@ public class EmailService {
                           String htmlContent) throws MessagingException {
 
         try {
+            MimeBuildEvent buildEvent = new MimeBuildEvent();
+            buildEvent.begin();
+
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
@@ -122,7 +157,21 @@ public class EmailService {
             helper.setSubject(subject);
             helper.setText(htmlContent, true);
 
-            mailSender.send(message);
+            buildEvent.end();
+            if (buildEvent.shouldCommit()) {
+                buildEvent.subject = subject;
+                buildEvent.recipients = toRecipients.size()
+                        + (ccRecipients != null ? ccRecipients.size() : 0)
+                        + (bccRecipients != null ? bccRecipients.size() : 0);
+                buildEvent.commit();
+            }
+
+            // In clustered mode any replica may deliver it; see SpoolDispatcher
+            if (mailSpool.isPresent()) {
+                mailSpool.get().enqueue(message);
+            } else {
+                smtpTracer.send(message);
+            }
         } catch (jakarta.mail.MessagingException e) {
             throw e;
         } catch (Exception e) {
@@ -0,0 +1,414 @@
+package com.qe.emailnotifier.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Shared filesystem spool used when several replicas cooperate on sending.
+ *
+ * Every rendered message is written as {@code <id>.eml}. A replica claims a message by
+ * taking an exclusive {@link FileLock} on {@code <id>.lease} and, while holding it,
+ * recording itself as owner until an expiry time. Leases of crashed replicas simply
+ * expire and are taken over by whichever replica scans the entry next.
+ */
+@Component
+@ConditionalOnProperty(name = "app.email.cluster.enabled", havingValue = "true")
+@Slf4j
+public class MailSpool {
+
+    private static final String MESSAGE_SUFFIX = ".eml";
+    private static final String LEASE_SUFFIX = ".lease";
+
+    private final Path spoolDir;
+    private final Path tmpDir;
+    private final Path failedDir;
+    private final String nodeId;
+    private final long leaseMillis;
+    private final long retryBackoffMillis;
+    private final long maxRetryBackoffMillis;
+    private final int maxAttempts;
+
+    /** Entries claimed by this JVM; the OS lock alone does not exclude threads of the same process. */
+    private final Set<String> localClaims = ConcurrentHashMap.newKeySet();
+
+    public MailSpool(@Value("${app.email.cluster.spool-dir:./mail-spool}") String spoolDir,
+                     @Value("${app.email.cluster.node-id:}") String nodeId,
+                     @Value("${app.email.cluster.lease-ms:300000}") long leaseMillis,
+                     @Value("${app.email.cluster.retry-backoff-ms:30000}") long retryBackoffMillis,
+                     @Value("${app.email.cluster.max-retry-backoff-ms:600000}") long maxRetryBackoffMillis,
+                     @Value("${app.email.cluster.max-attempts:5}") int maxAttempts) throws IOException {
+        this.spoolDir = Paths.get(spoolDir).toAbsolutePath();
+        this.tmpDir = this.spoolDir.resolve("tmp");
+        this.failedDir = this.spoolDir.resolve("failed");
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.leaseMillis = leaseMillis;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxRetryBackoffMillis = Math.max(maxRetryBackoffMillis, retryBackoffMillis);
+        this.maxAttempts = maxAttempts;
+
+        Files.createDirectories(tmpDir);
+        Files.createDirectories(failedDir);
+        log.info("Mail spool at {} (node {}, lease {} ms)", this.spoolDir, this.nodeId, leaseMillis);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getLeaseMillis() {
+        return leaseMillis;
+    }
+
+    /**
+     * Write a fully built message into the spool. The file only becomes visible to
+     * other replicas once it is complete.
+     */
+    public String enqueue(MimeMessage message) throws MessagingException {
+        String id = String.format("%015d-%s", System.currentTimeMillis(), UUID.randomUUID());
+        Path tmp = tmpDir.resolve(id + MESSAGE_SUFFIX);
+        try {
+            message.saveChanges();
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                message.writeTo(out);
+            }
+            Files.move(tmp, spoolDir.resolve(id + MESSAGE_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // best effort
+            }
+            throw new MessagingException("Failed to spool email", e);
+        }
+        log.debug("Spooled message {}", id);
+        return id;
+    }
+
+    /**
+     * Snapshot of the message ids currently in the spool, oldest first. Workers claim from
+     * one snapshot per pass rather than re-listing the shared directory for every claim.
+     */
+    public List<String> scan() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(MESSAGE_SUFFIX))
+                    .map(name -> name.substring(0, name.length() - MESSAGE_SUFFIX.length()))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Claim a message unless a live replica holds its lease or it is backing off.
+     */
+    public Optional<Claim> claim(String id) throws IOException {
+        if (!localClaims.add(id)) {
+            return Optional.empty();
+        }
+        boolean claimed = false;
+        try {
+            Optional<Lease> lease = tryAcquire(id);
+            if (lease.isPresent()) {
+                if (Files.exists(messagePath(id))) {
+                    claimed = true;
+                    return Optional.of(new Claim(id, lease.get().attempts()));
+                }
+                // Completed by another replica between scan and lock
+                Files.deleteIfExists(leasePath(id));
+            }
+            return Optional.empty();
+        } finally {
+            if (!claimed) {
+                localClaims.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Open the claimed message. Throws {@link NoSuchFileException} if another replica
+     * already completed it.
+     */
+    public InputStream open(Claim claim) throws IOException {
+        return Files.newInputStream(messagePath(claim.id()));
+    }
+
+    /**
+     * Re-check ownership and push the expiry forward right before the message is handed
+     * to the relay, so a takeover can only happen if this replica stalls for a full lease.
+     */
+    public boolean renew(Claim claim) throws IOException {
+        return withLock(claim.id(), false, (channel, current) -> {
+            if (!ownedBy(current)) {
+                return null;
+            }
+            writeLease(channel, new Lease(nodeId, System.currentTimeMillis() + leaseMillis,
+                    current.attempts(), current.failures()));
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    /**
+     * Drop the local claim without touching the lease, e.g. after it was taken over.
+     */
+    public void abandon(Claim claim) {
+        localClaims.remove(claim.id());
+    }
+
+    /**
+     * Remove a delivered message. Has no effect if the lease was taken over meanwhile,
+     * since the message then belongs to the new owner.
+     */
+    public boolean complete(Claim claim) throws IOException {
+        String id = claim.id();
+        try {
+            boolean owned = withLock(id, false, (channel, current) -> {
+                if (!ownedBy(current)) {
+                    return null;
+                }
+                Files.deleteIfExists(messagePath(id));
+                return Boolean.TRUE;
+            }).isPresent();
+            if (!owned) {
+                log.warn("Lease on message {} was taken over, leaving it to the current owner", id);
+                return false;
+            }
+            Files.deleteIfExists(leasePath(id));
+            return true;
+        } finally {
+            localClaims.remove(id);
+        }
+    }
+
+    /**
+     * Give the message back after a failed attempt that counts against max-attempts.
+     */
+    public boolean release(Claim claim) throws IOException {
+        return release(claim, true);
+    }
+
+    /**
+     * Give the message back after a failed send. Retries back off exponentially with the
+     * number of consecutive failures. Only failures that {@code countsAsAttempt} (the relay
+     * rejected the message for good) use up attempts; once they are exhausted the message
+     * is parked under {@code failed/}. Transient failures such as an unreachable relay or a
+     * 4xx reply are retried until delivery. Has no effect if the lease was taken over meanwhile.
+     */
+    public boolean release(Claim claim, boolean countsAsAttempt) throws IOException {
+        String id = claim.id();
+        try {
+            Optional<Integer> released = withLock(id, false, (channel, current) -> {
+                if (!ownedBy(current)) {
+                    return null;
+                }
+                int attempts = countsAsAttempt ? current.attempts() + 1 : current.attempts();
+                int failures = current.failures() + 1;
+                if (attempts >= maxAttempts) {
+                    Files.move(messagePath(id), failedDir.resolve(id + MESSAGE_SUFFIX),
+                            StandardCopyOption.ATOMIC_MOVE);
+                } else {
+                    writeLease(channel, new Lease("", System.currentTimeMillis() + backoffMillis(failures),
+                            attempts, failures));
+                }
+                return attempts;
+            });
+            if (released.isEmpty()) {
+                log.warn("Lease on message {} was taken over, not releasing it", id);
+                return false;
+            }
+            if (released.get() >= maxAttempts) {
+                Files.deleteIfExists(leasePath(id));
+                log.error("Message {} moved to {} after {} attempts", id, failedDir, released.get());
+            }
+            return true;
+        } finally {
+            localClaims.remove(id);
+        }
+    }
+
+    /**
+     * Remove leftovers of crashed nodes: lease files whose message is gone and temporary
+     * files, once they are older than a lease. Live leases are rewritten on every claim and
+     * renewal, so they are never that old.
+     */
+    public int sweep() throws IOException {
+        long cutoff = System.currentTimeMillis() - leaseMillis;
+        int removed = 0;
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            for (Path lease : files.filter(path -> path.getFileName().toString().endsWith(LEASE_SUFFIX)).toList()) {
+                String name = lease.getFileName().toString();
+                String id = name.substring(0, name.length() - LEASE_SUFFIX.length());
+                if (!Files.exists(messagePath(id)) && olderThan(lease, cutoff) && Files.deleteIfExists(lease)) {
+                    removed++;
+                }
+            }
+        }
+        try (Stream<Path> files = Files.list(tmpDir)) {
+            for (Path tmp : files.toList()) {
+                if (olderThan(tmp, cutoff) && Files.deleteIfExists(tmp)) {
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} orphaned spool files", removed);
+        }
+        return removed;
+    }
+
+    private static boolean olderThan(Path path, long cutoffMillis) throws IOException {
+        try {
+            return Files.getLastModifiedTime(path).toMillis() < cutoffMillis;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private long backoffMillis(int failures) {
+        long backoff = retryBackoffMillis;
+        for (int i = 1; i < failures && backoff < maxRetryBackoffMillis; i++) {
+            backoff *= 2;
+        }
+        return Math.min(backoff, maxRetryBackoffMillis);
+    }
+
+    private Optional<Lease> tryAcquire(String id) throws IOException {
+        return withLock(id, true, (channel, current) -> {
+            long now = System.currentTimeMillis();
+            if (current != null && current.expiresAt() > now) {
+                return null;
+            }
+            if (current != null && !current.owner().isEmpty()) {
+                log.warn("Taking over message {} from node {} (lease expired)", id, current.owner());
+            }
+            Lease lease = current != null
+                    ? new Lease(nodeId, now + leaseMillis, current.attempts(), current.failures())
+                    : new Lease(nodeId, now + leaseMillis, 0, 0);
+            writeLease(channel, lease);
+            return lease;
+        });
+    }
+
+    private boolean ownedBy(Lease lease) {
+        return lease != null && nodeId.equals(lease.owner());
+    }
+
+    /**
+     * Run {@code operation} on the lease file under an exclusive OS file lock. Only claiming
+     * may create the lease file; every other caller treats a missing one as not owned.
+     * Returns empty if the lock is busy, the file is missing, or the operation declines.
+     */
+    private <T> Optional<T> withLock(String id, boolean create, LockedOperation<T> operation) throws IOException {
+        Path path = leasePath(id);
+        try (FileChannel channel = create
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                return Optional.empty();
+            }
+            if (lock == null) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(operation.apply(channel, readLease(channel)));
+            } finally {
+                lock.release();
+            }
+        } catch (NoSuchFileException e) {
+            // Spool entry removed concurrently
+            return Optional.empty();
+        }
+    }
+
+    private void writeLease(FileChannel channel, Lease lease) throws IOException {
+        byte[] bytes = lease.encode().getBytes(StandardCharsets.UTF_8);
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(bytes), 0);
+        channel.force(true);
+    }
+
+    private Lease readLease(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        channel.read(buffer, 0);
+        return Lease.decode(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    private Path messagePath(String id) {
+        return spoolDir.resolve(id + MESSAGE_SUFFIX);
+    }
+
+    private Path leasePath(String id) {
+        return spoolDir.resolve(id + LEASE_SUFFIX);
+    }
+
+    private static String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName() + "-" + ProcessHandle.current().pid();
+        } catch (IOException e) {
+            return "node-" + ProcessHandle.current().pid();
+        }
+    }
+
+    public record Claim(String id, int attempts) {
+    }
+
+    private interface LockedOperation<T> {
+        T apply(FileChannel channel, Lease current) throws IOException;
+    }
+
+    /**
+     * @param attempts failures that count towards max-attempts
+     * @param failures consecutive failures of any kind, drives the retry backoff
+     */
+    private record Lease(String owner, long expiresAt, int attempts, int failures) {
+
+        String encode() {
+            return owner + "|" + expiresAt + "|" + attempts + "|" + failures;
+        }
+
+        static Lease decode(String value) {
+            String[] parts = value.trim().split("\\|", -1);
+            if (parts.length != 3 && parts.length != 4) {
+                return null;
+            }
+            try {
+                return new Lease(parts[0], Long.parseLong(parts[1]), Integer.parseInt(parts[2]),
+                        parts.length == 4 ? Integer.parseInt(parts[3]) : 0);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,516 @@
+package com.qe.emailnotifier.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qe.emailnotifier.model.ReportDataSource;
+import com.qe.emailnotifier.model.ReportDefinition;
+import com.qe.emailnotifier.model.ReportType;
+import com.qe.emailnotifier.model.TestCompletionReport;
+import com.qe.emailnotifier.model.TestStatusReport;
+import com.qe.emailnotifier.scheduler.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Registered report definitions that resend a report on a cron schedule.
+ *
+ * Definitions are persisted as one JSON file each under the store directory and
+ * re-scheduled on startup. Every definition fires at a stable per-definition offset
+ * within its spread window after the cron time, so schedules sharing "0 9 * * *"
+ * do not all render at 09:00:00.
+ *
+ * Only one replica may run the scheduler: it holds an exclusive lock on the store
+ * directory for its lifetime, and other replicas set {@code app.report-schedule.enabled=false}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.report-schedule.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ReportScheduleService {
+
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final Path storeDir;
+    private final Path lastSubmittedDir;
+    private final Path dataDir;
+    private final int defaultSpreadSeconds;
+    private final ExecutorService renderExecutor;
+    private final HashedTimingWheel wheel;
+
+    private final Map<String, ReportDefinition> definitions = new ConcurrentHashMap<>();
+    private final Map<String, HashedTimingWheel.Timeout> timeouts = new ConcurrentHashMap<>();
+    private final Map<String, TestStatusReport> lastSubmitted = new ConcurrentHashMap<>();
+
+    // Projects named by enabled LAST_SUBMITTED definitions; only their submissions are kept
+    private volatile Set<String> trackedProjects = Set.of();
+
+    private FileChannel storeLockChannel;
+
+    public ReportScheduleService(EmailService emailService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.report-schedule.store-dir:./report-definitions}") String storeDir,
+                                 @Value("${app.report-schedule.data-dir:./report-data}") String dataDir,
+                                 @Value("${app.report-schedule.default-spread-seconds:300}") int defaultSpreadSeconds,
+                                 @Value("${app.report-schedule.workers:4}") int workers,
+                                 @Value("${app.report-schedule.tick-ms:1000}") long tickMillis,
+                                 @Value("${app.report-schedule.wheel-size:512}") int wheelSize) {
+        this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.storeDir = Paths.get(storeDir).toAbsolutePath().normalize();
+        this.lastSubmittedDir = this.storeDir.resolve("last-submitted");
+        this.dataDir = Paths.get(dataDir).toAbsolutePath().normalize();
+        this.defaultSpreadSeconds = defaultSpreadSeconds;
+        this.renderExecutor = Executors.newFixedThreadPool(workers, Thread.ofPlatform()
+                .name("report-schedule-", 0)
+                .daemon(true)
+                .factory());
+        this.wheel = new HashedTimingWheel(tickMillis, TimeUnit.MILLISECONDS, wheelSize, renderExecutor);
+    }
+
+    @PostConstruct
+    public synchronized void load() throws IOException {
+        Files.createDirectories(storeDir);
+        Files.createDirectories(lastSubmittedDir);
+        Files.createDirectories(dataDir);
+        lockStore();
+        try (Stream<Path> files = Files.list(storeDir)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".json")).toList()) {
+                try {
+                    ReportDefinition definition = objectMapper.readValue(file.toFile(), ReportDefinition.class);
+                    String fileName = file.getFileName().toString();
+                    definition.setId(fileName.substring(0, fileName.length() - ".json".length()));
+                    validate(definition);
+                    definitions.put(definition.getId(), definition);
+                    scheduleNext(definition, Instant.now());
+                } catch (IOException | IllegalArgumentException e) {
+                    log.error("Skipping unreadable report definition {}", file, e);
+                }
+            }
+        }
+        refreshTrackedProjects();
+        loadLastSubmitted();
+        log.info("Loaded {} report definitions and {} last submissions from {}",
+                definitions.size(), lastSubmitted.size(), storeDir);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        wheel.close();
+        renderExecutor.shutdown();
+        if (storeLockChannel != null) {
+            storeLockChannel.close();
+        }
+    }
+
+    public List<ReportDefinition> list() {
+        return definitions.values().stream()
+                .sorted(Comparator.comparing(ReportDefinition::getName, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    public Optional<ReportDefinition> get(String id) {
+        return Optional.ofNullable(definitions.get(id));
+    }
+
+    public synchronized ReportDefinition register(ReportDefinition definition) {
+        definition.setId(UUID.randomUUID().toString());
+        validate(definition);
+        checkDataFile(definition);
+        persist(definition);
+        definitions.put(definition.getId(), definition);
+        scheduleNext(definition, Instant.now());
+        refreshTrackedProjects();
+        log.info("Registered report definition {} ({}) with schedule '{}'",
+                definition.getId(), definition.getName(), definition.getCron());
+        return definition;
+    }
+
+    public synchronized Optional<ReportDefinition> update(String id, ReportDefinition definition) {
+        if (!definitions.containsKey(id)) {
+            return Optional.empty();
+        }
+        definition.setId(id);
+        validate(definition);
+        checkDataFile(definition);
+        persist(definition);
+        definitions.put(id, definition);
+        scheduleNext(definition, Instant.now());
+        refreshTrackedProjects();
+        return Optional.of(definition);
+    }
+
+    public synchronized boolean delete(String id) {
+        ReportDefinition removed = definitions.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        HashedTimingWheel.Timeout timeout = timeouts.remove(id);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        try {
+            Files.deleteIfExists(definitionPath(id));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete report definition " + id, e);
+        }
+        refreshTrackedProjects();
+        return true;
+    }
+
+    /**
+     * Remember the latest status report of a project named by an enabled LAST_SUBMITTED
+     * definition, in memory and under {@code <store-dir>/last-submitted/} so it survives
+     * restarts. Submissions for any other project are not retained.
+     */
+    public void recordSubmission(TestStatusReport report) {
+        String projectName = report.getProjectName();
+        if (!trackedProjects.contains(projectName)) {
+            return;
+        }
+        lastSubmitted.put(projectName, report);
+        try {
+            writeAtomically(lastSubmittedPath(projectName), report);
+        } catch (IOException e) {
+            // The email already went out; keep serving the in-memory copy
+            log.error("Failed to persist last submission for project '{}'", projectName, e);
+        }
+    }
+
+    public Optional<TestStatusReport> lastSubmission(String projectName) {
+        return Optional.ofNullable(lastSubmitted.get(projectName));
+    }
+
+    private synchronized void refreshTrackedProjects() {
+        Set<String> projects = definitions.values().stream()
+                .filter(definition -> definition.isEnabled()
+                        && definition.getDataSource() == ReportDataSource.LAST_SUBMITTED)
+                .map(ReportDefinition::getProjectName)
+                .collect(Collectors.toUnmodifiableSet());
+        trackedProjects = projects;
+        lastSubmitted.keySet().retainAll(projects);
+
+        try (Stream<Path> files = Files.list(lastSubmittedDir)) {
+            for (Path file : files.toList()) {
+                Optional<String> project = projectOf(file);
+                if (project.isEmpty() || !projects.contains(project.get())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean up last submissions in {}", lastSubmittedDir, e);
+        }
+    }
+
+    private void loadLastSubmitted() throws IOException {
+        try (Stream<Path> files = Files.list(lastSubmittedDir)) {
+            for (Path file : files.toList()) {
+                Optional<String> project = projectOf(file);
+                if (project.isEmpty() || !trackedProjects.contains(project.get())) {
+                    continue;
+                }
+                try {
+                    lastSubmitted.put(project.get(), objectMapper.readValue(file.toFile(), TestStatusReport.class));
+                } catch (IOException e) {
+                    log.error("Skipping unreadable last submission {}", file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Project names are chosen by callers, so file names carry them Base64url-encoded.
+     */
+    private Path lastSubmittedPath(String projectName) {
+        String encoded = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(projectName.getBytes(StandardCharsets.UTF_8));
+        return lastSubmittedDir.resolve(encoded + ".json");
+    }
+
+    private static Optional<String> projectOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(".json")) {
+            return Optional.empty();
+        }
+        try {
+            byte[] decoded = Base64.getUrlDecoder().decode(name.substring(0, name.length() - ".json".length()));
+            return Optional.of(new String(decoded, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * First firing time strictly after {@code after}, including the spread offset.
+     */
+    private Optional<Instant> nextFireTime(ReportDefinition definition, Instant after) {
+        long offset = spreadOffsetSeconds(definition);
+        ZonedDateTime base = parseCron(definition.getCron())
+                .next(after.atZone(zone(definition)).minusSeconds(offset));
+        return Optional.ofNullable(base).map(time -> time.plusSeconds(offset).toInstant());
+    }
+
+    private synchronized void scheduleNext(ReportDefinition definition, Instant after) {
+        String id = definition.getId();
+        // Deleted or replaced while this run was in flight
+        if (definitions.get(id) != definition) {
+            return;
+        }
+
+        HashedTimingWheel.Timeout previous = timeouts.remove(id);
+        if (previous != null) {
+            previous.cancel();
+        }
+        if (!definition.isEnabled()) {
+            return;
+        }
+
+        Optional<Instant> fireAt = nextFireTime(definition, after);
+        if (fireAt.isEmpty()) {
+            log.warn("Report definition {} has no future firing time", id);
+            return;
+        }
+        long delayMillis = Math.max(Duration.between(Instant.now(), fireAt.get()).toMillis(), 0);
+        timeouts.put(id, wheel.schedule(() -> fire(definition, fireAt.get()), delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private void fire(ReportDefinition definition, Instant fireAt) {
+        if (definitions.get(definition.getId()) != definition) {
+            return;
+        }
+        // Anchor on the scheduled time: the wheel may run a little before fireAt by the
+        // wall clock, and cron.next(now) would then return the occurrence that just fired
+        Instant now = Instant.now();
+        scheduleNext(definition, now.isAfter(fireAt) ? now : fireAt);
+        try {
+            if (definition.getReportType() == ReportType.STATUS) {
+                Optional<TestStatusReport> report = loadStatusReport(definition);
+                if (report.isEmpty()) {
+                    log.warn("No submitted status report yet for project '{}', skipping definition {}",
+                            definition.getProjectName(), definition.getId());
+                    return;
+                }
+                emailService.sendTestStatusEmail(applyOverrides(definition, report.get()));
+            } else {
+                TestCompletionReport report = readDataFile(definition, TestCompletionReport.class);
+                emailService.sendTestCompletionEmail(applyOverrides(definition, report));
+            }
+            log.info("Sent scheduled report {} ({})", definition.getId(), definition.getName());
+        } catch (Exception e) {
+            log.error("Scheduled report {} ({}) failed", definition.getId(), definition.getName(), e);
+        }
+    }
+
+    private Optional<TestStatusReport> loadStatusReport(ReportDefinition definition) throws IOException {
+        if (definition.getDataSource() == ReportDataSource.FILE) {
+            return Optional.of(readDataFile(definition, TestStatusReport.class));
+        }
+        // Copy so overrides never leak into the shared last-submitted instance
+        return Optional.ofNullable(lastSubmitted.get(definition.getProjectName()))
+                .map(report -> objectMapper.convertValue(report, TestStatusReport.class));
+    }
+
+    private TestStatusReport applyOverrides(ReportDefinition definition, TestStatusReport report) {
+        if (definition.getSenderEmail() != null) {
+            report.setSenderEmail(definition.getSenderEmail());
+        }
+        if (definition.getRecipients() != null) {
+            report.setRecipients(definition.getRecipients());
+        }
+        if (definition.getCcRecipients() != null) {
+            report.setCcRecipients(definition.getCcRecipients());
+        }
+        if (definition.getBccRecipients() != null) {
+            report.setBccRecipients(definition.getBccRecipients());
+        }
+        if (definition.getSubject() != null) {
+            report.setSubject(definition.getSubject());
+        }
+        return report;
+    }
+
+    private TestCompletionReport applyOverrides(ReportDefinition definition, TestCompletionReport report) {
+        if (definition.getSenderEmail() != null) {
+            report.setSenderEmail(definition.getSenderEmail());
+        }
+        if (definition.getRecipients() != null) {
+            report.setRecipients(definition.getRecipients());
+        }
+        if (definition.getCcRecipients() != null) {
+            report.setCcRecipients(definition.getCcRecipients());
+        }
+        if (definition.getBccRecipients() != null) {
+            report.setBccRecipients(definition.getBccRecipients());
+        }
+        if (definition.getSubject() != null) {
+            report.setSubject(definition.getSubject());
+        }
+        return report;
+    }
+
+    private void validate(ReportDefinition definition) {
+        parseCron(definition.getCron());
+        zone(definition);
+        if (definition.getSpreadSeconds() != null && definition.getSpreadSeconds() < 0) {
+            throw new IllegalArgumentException("spreadSeconds must not be negative");
+        }
+        if (definition.getDataSource() == ReportDataSource.FILE) {
+            if (definition.getDataFile() == null || definition.getDataFile().isBlank()) {
+                throw new IllegalArgumentException("dataFile is required for FILE data source");
+            }
+            resolveDataFile(definition.getDataFile());
+        } else if (definition.getDataSource() == ReportDataSource.LAST_SUBMITTED) {
+            if (definition.getReportType() != ReportType.STATUS) {
+                throw new IllegalArgumentException("LAST_SUBMITTED is only supported for STATUS reports");
+            }
+            if (definition.getProjectName() == null || definition.getProjectName().isBlank()) {
+                throw new IllegalArgumentException("projectName is required for LAST_SUBMITTED data source");
+            }
+        }
+    }
+
+    /**
+     * Accepts both classic 5-field cron ("0 9 * * MON-FRI") and Spring's 6-field form with seconds.
+     */
+    private CronExpression parseCron(String cron) {
+        if (cron == null) {
+            throw new IllegalArgumentException("cron is required");
+        }
+        String expression = cron.trim();
+        if (!expression.startsWith("@") && expression.split("\\s+").length == 5) {
+            expression = "0 " + expression;
+        }
+        return CronExpression.parse(expression);
+    }
+
+    private ZoneId zone(ReportDefinition definition) {
+        if (definition.getTimeZone() == null || definition.getTimeZone().isBlank()) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(definition.getTimeZone());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone: " + definition.getTimeZone(), e);
+        }
+    }
+
+    /**
+     * Resolve a data file relative to the data directory, rejecting paths that escape it.
+     */
+    private Path resolveDataFile(String dataFile) {
+        Path resolved = dataDir.resolve(dataFile).normalize();
+        if (!resolved.startsWith(dataDir) || resolved.equals(dataDir)) {
+            throw new IllegalArgumentException("dataFile must be a file inside " + dataDir);
+        }
+        return resolved;
+    }
+
+    /**
+     * Parse a FILE data source once at registration, so a missing or malformed file is
+     * rejected with 400 instead of failing at its first scheduled run.
+     */
+    private void checkDataFile(ReportDefinition definition) {
+        if (definition.getDataSource() != ReportDataSource.FILE) {
+            return;
+        }
+        Class<?> type = definition.getReportType() == ReportType.STATUS
+                ? TestStatusReport.class : TestCompletionReport.class;
+        try {
+            readDataFile(definition, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("dataFile " + definition.getDataFile()
+                    + " is not a readable " + definition.getReportType() + " report: " + e.getMessage(), e);
+        }
+    }
+
+    private <T> T readDataFile(ReportDefinition definition, Class<T> type) throws IOException {
+        // Re-check after following symlinks, which normalize() does not see
+        Path file = resolveDataFile(definition.getDataFile()).toRealPath();
+        if (!file.startsWith(dataDir.toRealPath())) {
+            throw new IllegalArgumentException("dataFile must be a file inside " + dataDir);
+        }
+        // Same mapper settings as the endpoints, so a saved request body parses as it did there
+        return objectMapper.readValue(file.toFile(), type);
+    }
+
+    /**
+     * Take an exclusive lock on the store directory so two replicas sharing it cannot
+     * both fire every definition.
+     */
+    private void lockStore() throws IOException {
+        FileChannel channel = FileChannel.open(storeDir.resolve(".scheduler.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Report definitions in " + storeDir
+                    + " are already scheduled by another instance; set app.report-schedule.enabled=false"
+                    + " on all but one replica");
+        }
+        storeLockChannel = channel;
+    }
+
+    private long spreadOffsetSeconds(ReportDefinition definition) {
+        int spread = definition.getSpreadSeconds() != null ? definition.getSpreadSeconds() : defaultSpreadSeconds;
+        return spread > 0 ? Math.floorMod(definition.getId().hashCode(), spread) : 0;
+    }
+
+    private void persist(ReportDefinition definition) {
+        try {
+            writeAtomically(definitionPath(definition.getId()), definition);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to persist report definition " + definition.getId(), e);
+        }
+    }
+
+    private void writeAtomically(Path target, Object value) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), value);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path definitionPath(String id) {
+        return storeDir.resolve(id + ".json");
+    }
+}
@@ -0,0 +1,288 @@
+package com.qe.emailnotifier.service;
+
+import com.qe.emailnotifier.jfr.SmtpSendEvent;
+import com.qe.emailnotifier.model.SmtpTrace;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends messages to the relay and, for a sampled fraction of them, captures the SMTP
+ * conversation into an in-memory ring buffer instead of dumping it to stdout.
+ *
+ * Sampled sends go through a second sender whose Jakarta Mail session has debug output
+ * enabled and routed to a per-thread, size-capped buffer; every other send uses the
+ * regular sender with debug output off.
+ */
+@Component
+@Slf4j
+public class SmtpTracer {
+
+    private final JavaMailSender mailSender;
+    private final JavaMailSenderImpl tracingSender;
+    private final double sampleRate;
+    private final int maxTraceBytes;
+    private final String relayHost;
+
+    // Ring buffer; slot writes and the sequence bump happen together under the monitor
+    private final SmtpTrace[] traces;
+    private long sequence;
+    private final ThreadLocal<TraceBuffer> currentTrace = new ThreadLocal<>();
+
+    public SmtpTracer(JavaMailSender mailSender,
+                      @Value("${app.email.smtp-trace.sample-rate:0.01}") double sampleRate,
+                      @Value("${app.email.smtp-trace.capacity:100}") int capacity,
+                      @Value("${app.email.smtp-trace.max-bytes:16384}") int maxTraceBytes) {
+        this.mailSender = mailSender;
+        this.sampleRate = sampleRate;
+        this.maxTraceBytes = maxTraceBytes;
+        this.traces = new SmtpTrace[Math.max(capacity, 1)];
+        this.relayHost = mailSender instanceof JavaMailSenderImpl impl ? impl.getHost() : null;
+        this.tracingSender = mailSender instanceof JavaMailSenderImpl impl ? createTracingSender(impl) : null;
+    }
+
+    /**
+     * Send the message, tracing the SMTP conversation if this send is sampled.
+     */
+    public void send(MimeMessage message) throws MailException {
+        boolean traced = tracingSender != null && sampleRate > 0
+                && ThreadLocalRandom.current().nextDouble() < sampleRate;
+
+        SmtpSendEvent event = new SmtpSendEvent();
+        event.traced = traced;
+        event.begin();
+
+        TraceBuffer buffer = traced ? new TraceBuffer(maxTraceBytes) : null;
+        long start = System.nanoTime();
+        try {
+            if (traced) {
+                currentTrace.set(buffer);
+                tracingSender.send(message);
+            } else {
+                mailSender.send(message);
+            }
+            event.success = true;
+        } catch (MailException e) {
+            event.error = e.getMessage();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.messageId = messageId(message);
+                event.host = relayHost;
+                event.commit();
+            }
+            if (traced) {
+                currentTrace.remove();
+                record(message, buffer, System.nanoTime() - start, event.success, event.error);
+            }
+        }
+    }
+
+    /**
+     * Most recent traces, newest first.
+     */
+    public synchronized List<SmtpTrace> recent(int limit) {
+        int capacity = traces.length;
+        long newest = sequence - 1;
+        int count = (int) Math.min(Math.min(limit, capacity), newest + 1);
+        List<SmtpTrace> result = new ArrayList<>(Math.max(count, 0));
+        for (long seq = newest; seq > newest - count; seq--) {
+            SmtpTrace trace = traces[(int) (seq % capacity)];
+            if (trace != null) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+
+    private void record(MimeMessage message, TraceBuffer buffer, long elapsedNanos, boolean success, String error) {
+        SmtpTrace trace = SmtpTrace.builder()
+                .timestamp(Instant.now())
+                .messageId(messageId(message))
+                .subject(subject(message))
+                .recipients(recipientCount(message))
+                .durationMillis(elapsedNanos / 1_000_000)
+                .success(success)
+                .error(error)
+                .transcript(buffer.toString())
+                .truncated(buffer.truncated)
+                .build();
+        synchronized (this) {
+            traces[(int) (sequence % traces.length)] = trace;
+            sequence++;
+        }
+    }
+
+    private JavaMailSenderImpl createTracingSender(JavaMailSenderImpl source) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost(source.getHost());
+        sender.setPort(source.getPort());
+        sender.setProtocol(source.getProtocol());
+        sender.setUsername(source.getUsername());
+        sender.setPassword(source.getPassword());
+        sender.setDefaultEncoding(source.getDefaultEncoding());
+
+        Properties props = new Properties();
+        props.putAll(source.getJavaMailProperties());
+        props.put("mail.debug", "true");
+        props.put("mail.debug.auth", "false"); // never capture AUTH credentials
+
+        Session session = Session.getInstance(props);
+        session.setDebug(true);
+        session.setDebugOut(new PrintStream(new ThreadRoutedOutput(), true, StandardCharsets.UTF_8));
+        sender.setSession(session);
+        return sender;
+    }
+
+    private static String messageId(MimeMessage message) {
+        try {
+            return message.getMessageID();
+        } catch (MessagingException e) {
+            return null;
+        }
+    }
+
+    private static String subject(MimeMessage message) {
+        try {
+            return message.getSubject();
+        } catch (MessagingException e) {
+            return null;
+        }
+    }
+
+    private static int recipientCount(MimeMessage message) {
+        try {
+            Address[] recipients = message.getAllRecipients();
+            return recipients != null ? recipients.length : 0;
+        } catch (MessagingException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Debug sink shared by the tracing session; forwards to the buffer of the sending thread.
+     */
+    private class ThreadRoutedOutput extends OutputStream {
+
+        @Override
+        public void write(int b) {
+            TraceBuffer buffer = currentTrace.get();
+            if (buffer != null) {
+                buffer.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            TraceBuffer buffer = currentTrace.get();
+            if (buffer != null) {
+                buffer.write(b, off, len);
+            }
+        }
+    }
+
+    /**
+     * Keeps the SMTP commands and replies of one send, up to a byte limit. Everything
+     * between the relay's 354 go-ahead and the terminating "." line is message content
+     * (headers and the HTML report) and is dropped rather than buffered.
+     */
+    private static class TraceBuffer extends OutputStream {
+
+        private static final int MAX_LINE_BYTES = 1024;
+        private static final String CONTENT_PLACEHOLDER = "[message content omitted]";
+
+        private enum Phase { COMMANDS, AWAITING_GO_AHEAD, CONTENT }
+
+        private final int limit;
+        private final ByteArrayOutputStream transcript;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        private Phase phase = Phase.COMMANDS;
+        private boolean truncated;
+
+        TraceBuffer(int limit) {
+            this.limit = limit;
+            this.transcript = new ByteArrayOutputStream(Math.min(limit, 4096));
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                endLine();
+            } else if (line.size() < MAX_LINE_BYTES) {
+                line.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        private void endLine() {
+            String text = line.toString(StandardCharsets.UTF_8);
+            line.reset();
+            String command = text.strip();
+            switch (phase) {
+                case COMMANDS -> {
+                    append(text);
+                    if ("DATA".equalsIgnoreCase(command)) {
+                        phase = Phase.AWAITING_GO_AHEAD;
+                    }
+                }
+                case AWAITING_GO_AHEAD -> {
+                    append(text);
+                    if (command.startsWith("354")) {
+                        phase = Phase.CONTENT;
+                    } else if (!command.startsWith("DEBUG")) {
+                        phase = Phase.COMMANDS;
+                    }
+                }
+                case CONTENT -> {
+                    // Dot-stuffing guarantees a lone "." only ends the content
+                    if (".".equals(command)) {
+                        append(CONTENT_PLACEHOLDER);
+                        append(text);
+                        phase = Phase.COMMANDS;
+                    }
+                }
+            }
+        }
+
+        private void append(String text) {
+            byte[] bytes = (text + "\n").getBytes(StandardCharsets.UTF_8);
+            if (transcript.size() + bytes.length > limit) {
+                truncated = true;
+                return;
+            }
+            transcript.write(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public String toString() {
+            if (line.size() > 0 && phase != Phase.CONTENT) {
+                endLine();
+            }
+            return transcript.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
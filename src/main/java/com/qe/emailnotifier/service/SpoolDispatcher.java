@@ -0,0 +1,185 @@
+package com.qe.emailnotifier.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Drains the shared {@link MailSpool} on every replica. Each worker keeps claiming and
+ * sending until the spool is empty, then sleeps for the poll interval, so a replica
+ * stuck on a slow relay simply claims less while idle replicas pick up the rest.
+ */
+@Component
+@ConditionalOnProperty(name = "app.email.cluster.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SpoolDispatcher {
+
+    private static final Pattern TRANSIENT_REPLY = Pattern.compile("\\s*4\\d\\d\\b");
+
+    private final MailSpool mailSpool;
+    private final JavaMailSender mailSender;
+    private final SmtpTracer smtpTracer;
+
+    @Value("${app.email.cluster.workers:4}")
+    private int workers;
+
+    @Value("${app.email.cluster.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newScheduledThreadPool(workers, Thread.ofPlatform()
+                .name("mail-spool-" + mailSpool.getNodeId() + "-", 0)
+                .daemon(true)
+                .factory());
+        for (int i = 0; i < workers; i++) {
+            executor.scheduleWithFixedDelay(this::drain, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        long sweepInterval = mailSpool.getLeaseMillis();
+        executor.scheduleWithFixedDelay(this::sweep, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+        log.info("Started {} spool workers", workers);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!executor.isShutdown()) {
+                List<String> pending = mailSpool.scan();
+                if (pending.isEmpty()) {
+                    return;
+                }
+                // Start at a random entry so workers do not all contend for the head of the spool
+                int offset = ThreadLocalRandom.current().nextInt(pending.size());
+                boolean claimedAny = false;
+                for (int i = 0; i < pending.size() && !executor.isShutdown(); i++) {
+                    Optional<MailSpool.Claim> claim = mailSpool.claim(pending.get((offset + i) % pending.size()));
+                    if (claim.isPresent()) {
+                        claimedAny = true;
+                        send(claim.get());
+                    }
+                }
+                if (!claimedAny) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic task
+            log.error("Spool worker failed", e);
+        }
+    }
+
+    private void send(MailSpool.Claim claim) throws IOException {
+        try {
+            MimeMessage message;
+            try (InputStream in = mailSpool.open(claim)) {
+                message = mailSender.createMimeMessage(in);
+            } catch (NoSuchFileException e) {
+                log.debug("Message {} was completed by another replica", claim.id());
+                mailSpool.abandon(claim);
+                return;
+            }
+
+            if (!mailSpool.renew(claim)) {
+                log.warn("Lost lease on message {} before sending, skipping", claim.id());
+                mailSpool.abandon(claim);
+                return;
+            }
+
+            smtpTracer.send(message);
+        } catch (IOException | MailException e) {
+            boolean permanent = !isTransient(e);
+            log.warn("Failed to send spooled message {} ({} failure, attempt {})", claim.id(),
+                    permanent ? "permanent" : "transient", claim.attempts() + (permanent ? 1 : 0), e);
+            mailSpool.release(claim, permanent);
+            return;
+        }
+        if (mailSpool.complete(claim)) {
+            log.info("Sent spooled message {}", claim.id());
+        }
+    }
+
+    private void sweep() {
+        try {
+            mailSpool.sweep();
+        } catch (Exception e) {
+            log.error("Spool sweep failed", e);
+        }
+    }
+
+    /**
+     * Relay outages and 4xx replies are worth retrying without using up attempts: network
+     * errors surface as an {@link IOException} somewhere in the cause chain, and 4xx replies
+     * as a nested MessagingException whose message is the server response.
+     */
+    static boolean isTransient(Exception failure) {
+        if (failure instanceof MailParseException) {
+            // Unreadable spool file, retrying will not help
+            return false;
+        }
+        Deque<Throwable> pending = new ArrayDeque<>();
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        pending.push(failure);
+        while (!pending.isEmpty()) {
+            Throwable current = pending.pop();
+            if (!seen.add(current)) {
+                continue;
+            }
+            if (current instanceof IOException) {
+                return true;
+            }
+            if (current instanceof MessagingException messagingException) {
+                if (current.getMessage() != null && TRANSIENT_REPLY.matcher(current.getMessage()).lookingAt()) {
+                    return true;
+                }
+                if (messagingException.getNextException() != null) {
+                    pending.push(messagingException.getNextException());
+                }
+            }
+            if (current instanceof MailSendException sendException) {
+                for (Exception nested : sendException.getMessageExceptions()) {
+                    pending.push(nested);
+                }
+            }
+            if (current.getCause() != null) {
+                pending.push(current.getCause());
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,130 @@
+package com.qe.emailnotifier.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import com.qe.emailnotifier.model.Defect;
+import com.qe.emailnotifier.model.TestCase;
+import com.qe.emailnotifier.model.TestStatusReport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares bytes on the wire and decode + parse time of a {@link TestStatusReport}
+ * across the request encodings accepted by /api/email/status.
+ *
+ * Run with: mvn -q test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.qe.emailnotifier.bench.PayloadEncodingBenchmark
+ */
+public class PayloadEncodingBenchmark {
+
+    private static final int[] ROW_COUNTS = {1_000, 10_000, 50_000};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ObjectMapper CBOR = new CBORMapper();
+    private static final ObjectMapper SMILE = new SmileMapper();
+
+    private interface Decoder {
+        TestStatusReport decode(byte[] payload) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-8s %-12s %12s %10s %12s%n", "rows", "encoding", "bytes", "ratio", "parse (ms)");
+        for (int rows : ROW_COUNTS) {
+            TestStatusReport report = buildReport(rows);
+            byte[] json = JSON.writeValueAsBytes(report);
+            byte[] cbor = CBOR.writeValueAsBytes(report);
+            byte[] smile = SMILE.writeValueAsBytes(report);
+
+            run(rows, "json", json, json.length, payload -> JSON.readValue(payload, TestStatusReport.class));
+            run(rows, "json+gzip", gzip(json), json.length,
+                    payload -> JSON.readValue(new GZIPInputStream(new ByteArrayInputStream(payload)), TestStatusReport.class));
+            run(rows, "json+zstd", Zstd.compress(json), json.length,
+                    payload -> JSON.readValue(zstd(payload), TestStatusReport.class));
+            run(rows, "cbor", cbor, json.length, payload -> CBOR.readValue(payload, TestStatusReport.class));
+            run(rows, "cbor+zstd", Zstd.compress(cbor), json.length,
+                    payload -> CBOR.readValue(zstd(payload), TestStatusReport.class));
+            run(rows, "smile", smile, json.length, payload -> SMILE.readValue(payload, TestStatusReport.class));
+            run(rows, "smile+zstd", Zstd.compress(smile), json.length,
+                    payload -> SMILE.readValue(zstd(payload), TestStatusReport.class));
+        }
+    }
+
+    private static void run(int rows, String encoding, byte[] payload, int jsonBytes, Decoder decoder) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            decoder.decode(payload);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            TestStatusReport decoded = decoder.decode(payload);
+            if (decoded.getTestCases().size() != rows) {
+                throw new IllegalStateException(encoding + " round trip lost rows");
+            }
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ROUNDS;
+        System.out.printf("%-8d %-12s %12d %9.2fx %12.2f%n",
+                rows, encoding, payload.length, (double) jsonBytes / payload.length, millis);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static InputStream zstd(byte[] data) throws IOException {
+        return new ZstdInputStream(new ByteArrayInputStream(data));
+    }
+
+    private static TestStatusReport buildReport(int rows) {
+        String[] statuses = {"Passed", "Failed", "In Progress", "Not Attempted"};
+        List<TestCase> testCases = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            testCases.add(TestCase.builder()
+                    .tcId("TC " + i)
+                    .overallStatus(statuses[i % statuses.length])
+                    .android(statuses[(i + 1) % statuses.length])
+                    .ios(statuses[(i + 2) % statuses.length])
+                    .dWeb(statuses[i % statuses.length])
+                    .mWeb(statuses[(i + 3) % statuses.length])
+                    .comments(i % 7 == 0 ? "CEPG-" + (360000 + i) : "")
+                    .build());
+        }
+
+        List<Defect> defects = new ArrayList<>();
+        for (int i = 0; i < rows / 20; i++) {
+            defects.add(Defect.builder()
+                    .bugId("CEPG-" + (360000 + i))
+                    .priority(i % 3 == 0 ? "P1" : "P2")
+                    .currentOwner("Owner " + i % 50)
+                    .manager("Manager " + i % 10)
+                    .director("Director " + i % 3)
+                    .sdGd("Q4 2026")
+                    .plannedDoneDate("02/18")
+                    .status("Backlog")
+                    .build());
+        }
+
+        return TestStatusReport.builder()
+                .projectName("E2E Testing - Benchmark")
+                .vertical("Fulfillment")
+                .riskStatus("On Track")
+                .recipients(List.of("qa-team@company.com"))
+                .testCases(testCases)
+                .defects(defects)
+                .build();
+    }
+}
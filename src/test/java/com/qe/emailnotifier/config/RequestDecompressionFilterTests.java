@@ -0,0 +1,153 @@
+package com.qe.emailnotifier.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.qe.emailnotifier.controller.EmailController;
+import com.qe.emailnotifier.model.TestStatusReport;
+import com.qe.emailnotifier.service.EmailService;
+import com.qe.emailnotifier.service.ReportScheduleService;
+import com.qe.emailnotifier.service.SmtpTracer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.thymeleaf.TemplateEngine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmailController.class)
+@Import(PayloadEncodingConfig.class)
+@TestPropertySource(properties = "app.request.max-decoded-bytes=1024")
+class RequestDecompressionFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private SmtpTracer smtpTracer;
+
+    @MockBean
+    private ReportScheduleService reportScheduleService;
+
+    @MockBean
+    private TemplateEngine templateEngine;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void gzipBodyOverLimitIsRejected() throws Exception {
+        TestStatusReport report = report();
+        report.setSummaryMessage(" ".repeat(4096));
+
+        mockMvc.perform(post("/api/email/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(gzip(objectMapper.writeValueAsBytes(report))))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.success").value(false));
+
+        verify(emailService, never()).sendTestStatusEmail(any());
+    }
+
+    @Test
+    void truncatedGzipBodyIsRejected() throws Exception {
+        byte[] compressed = gzip(objectMapper.writeValueAsBytes(report()));
+
+        mockMvc.perform(post("/api/email/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(Arrays.copyOf(compressed, compressed.length / 2)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void malformedGzipBodyIsRejected() throws Exception {
+        mockMvc.perform(post("/api/email/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content("not gzip at all".getBytes()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unknownContentEncodingIsRejected() throws Exception {
+        mockMvc.perform(post("/api/email/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "br")
+                        .content(objectMapper.writeValueAsBytes(report())))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void zstdFrameWithOversizedWindowIsRejected() throws Exception {
+        // Streaming frames carry no content size, so they declare the full level-default window
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZstdOutputStream zstd = new ZstdOutputStream(out)) {
+            zstd.write(objectMapper.writeValueAsBytes(report()));
+        }
+
+        mockMvc.perform(post("/api/email/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "zstd")
+                        .content(out.toByteArray()))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void zstdBodyReachesController() throws Exception {
+        mockMvc.perform(post("/api/email/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "zstd")
+                        .content(Zstd.compress(objectMapper.writeValueAsBytes(report()))))
+                .andExpect(status().isOk());
+
+        verify(emailService).sendTestStatusEmail(argThat(report -> "Checkout".equals(report.getProjectName())));
+    }
+
+    @Test
+    void cborBodyReachesController() throws Exception {
+        mockMvc.perform(post("/api/email/status")
+                        .contentType(MediaType.valueOf("application/cbor"))
+                        .content(new CBORMapper().writeValueAsBytes(report())))
+                .andExpect(status().isOk());
+
+        verify(emailService).sendTestStatusEmail(argThat(report -> "Checkout".equals(report.getProjectName())));
+    }
+
+    private static TestStatusReport report() {
+        return TestStatusReport.builder()
+                .projectName("Checkout")
+                .recipients(List.of("qa-team@company.com"))
+                .build();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,62 @@
+package com.qe.emailnotifier.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTests {
+
+    private static final long TICK_MS = 20;
+    private static final int TICKS_PER_WHEEL = 8;          // one rotation = 160 ms
+    private static final long SCHEDULING_SLACK_MS = 50;    // thread wake-up jitter on busy CI hosts
+
+    @ParameterizedTest
+    @ValueSource(longs = {50, TICK_MS * TICKS_PER_WHEEL, 400})
+    void firesWithinOneTickOfDeadline(long delayMs) throws Exception {
+        try (HashedTimingWheel wheel = new HashedTimingWheel(TICK_MS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL, Runnable::run)) {
+            CompletableFuture<Long> firedAt = new CompletableFuture<>();
+            long scheduledAt = System.nanoTime();
+            wheel.schedule(() -> firedAt.complete(System.nanoTime()), delayMs, TimeUnit.MILLISECONDS);
+
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(firedAt.get(5, TimeUnit.SECONDS) - scheduledAt);
+            assertTrue(elapsedMs >= delayMs, "fired early after " + elapsedMs + " ms");
+            assertTrue(elapsedMs <= delayMs + TICK_MS + SCHEDULING_SLACK_MS, "fired late after " + elapsedMs + " ms");
+            assertEquals(0, wheel.size());
+        }
+    }
+
+    @Test
+    void cancelledTimeoutDoesNotFire() throws Exception {
+        try (HashedTimingWheel wheel = new HashedTimingWheel(TICK_MS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL, Runnable::run)) {
+            AtomicBoolean fired = new AtomicBoolean();
+            HashedTimingWheel.Timeout timeout = wheel.schedule(() -> fired.set(true), 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(timeout.cancel());
+            assertTrue(timeout.isCancelled());
+            assertEquals(0, wheel.size());
+
+            Thread.sleep(200);
+            assertFalse(fired.get());
+            assertFalse(timeout.cancel());
+        }
+    }
+
+    @Test
+    void firedTimeoutCannotBeCancelled() throws Exception {
+        try (HashedTimingWheel wheel = new HashedTimingWheel(TICK_MS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL, Runnable::run)) {
+            CompletableFuture<Void> fired = new CompletableFuture<>();
+            HashedTimingWheel.Timeout timeout = wheel.schedule(() -> fired.complete(null), 10, TimeUnit.MILLISECONDS);
+
+            fired.get(5, TimeUnit.SECONDS);
+            assertFalse(timeout.cancel());
+        }
+    }
+}
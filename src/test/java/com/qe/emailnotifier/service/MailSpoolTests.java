@@ -0,0 +1,160 @@
+package com.qe.emailnotifier.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MailSpoolTests {
+
+    private static final long SHORT_LEASE_MS = 100;
+
+    @TempDir
+    Path spoolDir;
+
+    @Test
+    void onlyOneNodeClaimsAMessage() throws Exception {
+        MailSpool nodeA = spool("node-a", 60_000, 5);
+        MailSpool nodeB = spool("node-b", 60_000, 5);
+        String id = nodeA.enqueue(message());
+
+        assertTrue(nodeA.claim(id).isPresent());
+        assertFalse(nodeB.claim(id).isPresent());
+        assertFalse(nodeA.claim(id).isPresent());
+    }
+
+    @Test
+    void expiredLeaseIsTakenOver() throws Exception {
+        MailSpool nodeA = spool("node-a", SHORT_LEASE_MS, 5);
+        MailSpool nodeB = spool("node-b", SHORT_LEASE_MS, 5);
+        String id = nodeA.enqueue(message());
+
+        assertTrue(nodeA.claim(id).isPresent());
+        assertFalse(nodeB.claim(id).isPresent());
+
+        Thread.sleep(SHORT_LEASE_MS * 3);
+        assertTrue(nodeB.claim(id).isPresent());
+    }
+
+    @Test
+    void staleOwnerCannotReleaseOrComplete() throws Exception {
+        MailSpool nodeA = spool("node-a", SHORT_LEASE_MS, 5);
+        MailSpool nodeB = spool("node-b", 60_000, 5);
+        MailSpool nodeC = spool("node-c", 60_000, 5);
+        String id = nodeA.enqueue(message());
+
+        MailSpool.Claim staleClaim = nodeA.claim(id).orElseThrow();
+        Thread.sleep(SHORT_LEASE_MS * 3);
+        MailSpool.Claim liveClaim = nodeB.claim(id).orElseThrow();
+
+        assertFalse(nodeA.release(staleClaim));
+        assertFalse(nodeC.claim(id).isPresent(), "release by the stale owner must not free the live lease");
+        assertFalse(nodeA.renew(staleClaim));
+
+        assertFalse(nodeA.complete(staleClaim));
+        assertTrue(Files.exists(spoolDir.resolve(id + ".eml")), "complete by the stale owner must not delete");
+
+        assertTrue(nodeB.renew(liveClaim));
+        assertTrue(nodeB.complete(liveClaim));
+        assertTrue(nodeB.scan().isEmpty());
+        assertFalse(Files.exists(spoolDir.resolve(id + ".lease")));
+    }
+
+    @Test
+    void releasedMessageIsRetriedAndParkedAfterMaxAttempts() throws Exception {
+        MailSpool nodeA = spool("node-a", 60_000, 2);
+        String id = nodeA.enqueue(message());
+
+        assertTrue(nodeA.release(nodeA.claim(id).orElseThrow()));
+        Optional<MailSpool.Claim> retry = nodeA.claim(id);
+        assertTrue(retry.isPresent());
+        assertEquals(1, retry.get().attempts());
+
+        assertTrue(nodeA.release(retry.get()));
+        assertTrue(Files.exists(spoolDir.resolve("failed").resolve(id + ".eml")));
+        assertTrue(nodeA.scan().isEmpty());
+        assertFalse(Files.exists(spoolDir.resolve(id + ".lease")));
+    }
+
+    @Test
+    void releaseAfterCompletionDoesNotRecreateLease() throws Exception {
+        MailSpool nodeA = spool("node-a", 60_000, 5);
+        String id = nodeA.enqueue(message());
+
+        MailSpool.Claim claim = nodeA.claim(id).orElseThrow();
+        assertTrue(nodeA.complete(claim));
+
+        assertFalse(nodeA.renew(claim));
+        assertFalse(nodeA.release(claim));
+        assertFalse(Files.exists(spoolDir.resolve(id + ".lease")));
+    }
+
+    @Test
+    void transientFailuresDoNotUseUpAttempts() throws Exception {
+        MailSpool nodeA = spool("node-a", 60_000, 1);
+        String id = nodeA.enqueue(message());
+
+        assertTrue(nodeA.release(nodeA.claim(id).orElseThrow(), false));
+        assertTrue(nodeA.release(nodeA.claim(id).orElseThrow(), false));
+
+        MailSpool.Claim claim = nodeA.claim(id).orElseThrow();
+        assertEquals(0, claim.attempts());
+        assertFalse(Files.exists(spoolDir.resolve("failed").resolve(id + ".eml")));
+    }
+
+    @Test
+    void releasedMessageWaitsForBackoff() throws Exception {
+        MailSpool nodeA = new MailSpool(spoolDir.toString(), "node-a", 60_000, 60_000, 600_000, 5);
+        String id = nodeA.enqueue(message());
+
+        assertTrue(nodeA.release(nodeA.claim(id).orElseThrow(), false));
+        assertFalse(nodeA.claim(id).isPresent());
+    }
+
+    @Test
+    void sweepRemovesOrphanedLeasesAndTempFiles() throws Exception {
+        MailSpool nodeA = spool("node-a", SHORT_LEASE_MS, 5);
+        String orphan = nodeA.enqueue(message());
+        String live = nodeA.enqueue(message());
+        nodeA.claim(orphan).orElseThrow();
+        nodeA.claim(live).orElseThrow();
+
+        // Simulate a crash between deleting the message and deleting its lease
+        Files.delete(spoolDir.resolve(orphan + ".eml"));
+        Path staleTmp = Files.writeString(spoolDir.resolve("tmp").resolve("crashed.eml"), "partial");
+        FileTime old = FileTime.fromMillis(System.currentTimeMillis() - SHORT_LEASE_MS * 10);
+        Files.setLastModifiedTime(spoolDir.resolve(orphan + ".lease"), old);
+        Files.setLastModifiedTime(spoolDir.resolve(live + ".lease"), old);
+        Files.setLastModifiedTime(staleTmp, old);
+
+        assertEquals(2, nodeA.sweep());
+        assertFalse(Files.exists(spoolDir.resolve(orphan + ".lease")));
+        assertFalse(Files.exists(staleTmp));
+        assertTrue(Files.exists(spoolDir.resolve(live + ".lease")), "leases of queued messages are kept");
+    }
+
+    private MailSpool spool(String nodeId, long leaseMillis, int maxAttempts) throws Exception {
+        return new MailSpool(spoolDir.toString(), nodeId, leaseMillis, 0, 0, maxAttempts);
+    }
+
+    private static MimeMessage message() throws Exception {
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setFrom(new InternetAddress("qe-bot@company.com"));
+        message.setRecipients(Message.RecipientType.TO, "qa-team@company.com");
+        message.setSubject("[E2E Test Status] Checkout - On Track");
+        message.setText("<p>status</p>", "UTF-8", "html");
+        return message;
+    }
+}
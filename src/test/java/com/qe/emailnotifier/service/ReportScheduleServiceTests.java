@@ -0,0 +1,163 @@
+package com.qe.emailnotifier.service;
+
+import com.qe.emailnotifier.model.ReportDataSource;
+import com.qe.emailnotifier.model.ReportDefinition;
+import com.qe.emailnotifier.model.ReportType;
+import com.qe.emailnotifier.model.TestStatusReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ReportScheduleServiceTests {
+
+    @TempDir
+    Path storeDir;
+
+    @TempDir
+    Path dataDir;
+
+    private final List<ReportScheduleService> started = new ArrayList<>();
+
+    @BeforeEach
+    void writeDataFile() throws Exception {
+        Files.writeString(dataDir.resolve("status.json"), """
+                {"projectName": "Checkout", "testCases": [{"key": "GF-1"}]}
+                """);
+    }
+
+    @AfterEach
+    void stopServices() throws Exception {
+        for (ReportScheduleService service : started) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void definitionsSurviveRestart() throws Exception {
+        ReportScheduleService first = start();
+        ReportDefinition registered = first.register(definition("status.json"));
+        first.stop();
+        started.remove(first);
+
+        ReportScheduleService second = start();
+        ReportDefinition reloaded = second.get(registered.getId()).orElseThrow();
+
+        assertEquals(registered, reloaded);
+        assertEquals(1, second.list().size());
+    }
+
+    @Test
+    void lastSubmittedSurvivesRestart() throws Exception {
+        ReportScheduleService first = start();
+        ReportDefinition registered = first.register(lastSubmittedDefinition("Checkout"));
+        first.recordSubmission(TestStatusReport.builder().projectName("Checkout").summaryMessage("On Track").build());
+        first.recordSubmission(TestStatusReport.builder().projectName("Payments").build());
+        first.stop();
+        started.remove(first);
+
+        ReportScheduleService second = start();
+
+        assertEquals("On Track", second.lastSubmission("Checkout").orElseThrow().getSummaryMessage());
+        assertTrue(second.lastSubmission("Payments").isEmpty());
+
+        assertTrue(second.delete(registered.getId()));
+        try (var files = Files.list(storeDir.resolve("last-submitted"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void deletedDefinitionIsNotReloaded() throws Exception {
+        ReportScheduleService first = start();
+        ReportDefinition registered = first.register(definition("status.json"));
+        assertTrue(first.delete(registered.getId()));
+        first.stop();
+        started.remove(first);
+
+        assertTrue(start().list().isEmpty());
+    }
+
+    @Test
+    void dataFileOutsideDataDirIsRejected() throws Exception {
+        ReportScheduleService service = start();
+
+        assertThrows(IllegalArgumentException.class, () -> service.register(definition("../secrets.json")));
+        assertThrows(IllegalArgumentException.class, () -> service.register(definition("/etc/passwd")));
+        assertTrue(service.list().isEmpty());
+    }
+
+    @Test
+    void dataFileWithUnknownFieldsIsAccepted() throws Exception {
+        ReportScheduleService service = start();
+
+        assertFalse(service.register(definition("status.json")).getId().isBlank());
+    }
+
+    @Test
+    void unreadableDataFileIsRejectedAtRegistration() throws Exception {
+        Files.writeString(dataDir.resolve("broken.json"), "{\"projectName\": ");
+        ReportScheduleService service = start();
+
+        assertThrows(IllegalArgumentException.class, () -> service.register(definition("broken.json")));
+        assertThrows(IllegalArgumentException.class, () -> service.register(definition("missing.json")));
+        assertTrue(service.list().isEmpty());
+    }
+
+    @Test
+    void secondSchedulerOnSameStoreRefusesToStart() throws Exception {
+        start();
+
+        assertThrows(IllegalStateException.class, this::start);
+    }
+
+    private ReportScheduleService start() throws Exception {
+        ReportScheduleService service = new ReportScheduleService(mock(EmailService.class),
+                Jackson2ObjectMapperBuilder.json().build(),
+                storeDir.toString(), dataDir.toString(), 300, 1, 1000, 512);
+        try {
+            service.load();
+        } catch (RuntimeException e) {
+            service.stop();
+            throw e;
+        }
+        started.add(service);
+        return service;
+    }
+
+    private static ReportDefinition definition(String dataFile) {
+        return ReportDefinition.builder()
+                .name("Checkout daily status")
+                .reportType(ReportType.STATUS)
+                .cron("0 9 * * MON-FRI")
+                .timeZone("America/Chicago")
+                .dataSource(ReportDataSource.FILE)
+                .dataFile(dataFile)
+                .recipients(List.of("qa-team@company.com"))
+                .build();
+    }
+
+    private static ReportDefinition lastSubmittedDefinition(String projectName) {
+        return ReportDefinition.builder()
+                .name(projectName + " daily status")
+                .reportType(ReportType.STATUS)
+                .cron("0 9 * * MON-FRI")
+                .timeZone("America/Chicago")
+                .dataSource(ReportDataSource.LAST_SUBMITTED)
+                .projectName(projectName)
+                .recipients(List.of("qa-team@company.com"))
+                .build();
+    }
+}
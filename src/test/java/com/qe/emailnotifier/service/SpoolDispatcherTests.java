@@ -0,0 +1,46 @@
+package com.qe.emailnotifier.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpoolDispatcherTests {
+
+    @Test
+    void unreachableRelayIsTransient() {
+        MessagingException connect = new MessagingException("Could not connect to SMTP host", new ConnectException());
+
+        assertTrue(SpoolDispatcher.isTransient(new MailSendException(Map.<Object, Exception>of(new Object(), connect))));
+    }
+
+    @Test
+    void temporaryRejectionIsTransient() {
+        SendFailedException rejected = new SendFailedException("Invalid Addresses",
+                new MessagingException("451 4.3.0 Mail server temporarily rejected message"));
+
+        assertTrue(SpoolDispatcher.isTransient(new MailSendException("Failed messages", rejected)));
+    }
+
+    @Test
+    void permanentRejectionCountsAsAttempt() {
+        SendFailedException rejected = new SendFailedException("Invalid Addresses",
+                new MessagingException("550 5.1.1 User unknown"));
+
+        assertFalse(SpoolDispatcher.isTransient(new MailSendException("Failed messages", rejected)));
+    }
+
+    @Test
+    void unreadableSpoolFileCountsAsAttempt() {
+        assertFalse(SpoolDispatcher.isTransient(
+                new MailParseException("Could not parse MIME message", new IOException("truncated"))));
+    }
+}